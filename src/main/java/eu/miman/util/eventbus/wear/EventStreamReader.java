@@ -0,0 +1,95 @@
+package eu.miman.util.eventbus.wear;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the events written by an EventStreamWriter one frame at a time.
+ *
+ * Only one frame is held in memory at a time, so the memory use is the same whether the stream
+ * contains ten events or a million.
+ */
+class EventStreamReader implements Closeable {
+    /**
+     * The largest frame that is accepted, a larger length means that the stream is corrupt.
+     */
+    static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final Class streamClass;
+    private final DataInputStream in;
+    private final Gson gson;
+
+    /**
+     * Reused between the frames, it only grows if a frame is larger than any frame read before.
+     */
+    private byte[] frameBuffer = new byte[BUFFER_SIZE];
+
+    /**
+     * @param streamClass The class of the events in the stream
+     * @param in          The stream to read the frames from
+     * @param gson        Used to convert the JSON in the frames to events
+     */
+    EventStreamReader(Class streamClass, InputStream in, Gson gson) {
+        this.streamClass = streamClass;
+        this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        this.gson = gson;
+    }
+
+    /**
+     * Reads the next event from the stream, this call blocks until the full frame has arrived.
+     *
+     * @return The next event, or null if the stream has ended (null is never a valid event)
+     * @throws IOException If the stream is corrupt, ends in the middle of a frame or a frame
+     *                     can't be parsed to an event
+     */
+    Object readEvent() throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            // The sender closed the stream between two frames
+            return null;
+        }
+        int length;
+        try {
+            length = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedShort());
+        } catch (EOFException e) {
+            throw new IOException("The event stream ended in the middle of a frame header", e);
+        }
+        if (length <= 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length in event stream: " + length);
+        }
+        if (frameBuffer.length < length) {
+            frameBuffer = new byte[length];
+        }
+        try {
+            in.readFully(frameBuffer, 0, length);
+        } catch (EOFException e) {
+            throw new IOException("The event stream ended in the middle of a frame", e);
+        }
+        String json = new String(frameBuffer, 0, length, EventStreamWriter.UTF8);
+        Object event;
+        try {
+            event = gson.fromJson(json, streamClass);
+        } catch (JsonParseException e) {
+            throw new IOException("Failed to parse event in event stream", e);
+        }
+        if (event == null) {
+            // Must not be returned, it would be taken as the end of the stream
+            throw new IOException("Frame in event stream doesn't contain an event");
+        }
+        return event;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,96 @@
+package eu.miman.util.eventbus.wear;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Writes a sequence of events of one class on a single ChannelApi channel to the other device.
+ *
+ * Each event is written as a frame: a 4 byte big-endian length followed by the event as an UTF-8
+ * encoded JSON string. The receiving EventbusDataLayerProxyService decodes and posts each event
+ * as soon as its frame has arrived.
+ *
+ * The writes are blocking, if the other device doesn't keep up the write call will wait until
+ * there is room in the channel again. This means that this class should NOT be used on the UI
+ * thread.
+ *
+ * Instances are created with EventbusDataLayerGateway.openEventStream and must always be closed
+ * when the sequence has been written.
+ */
+public class EventStreamWriter implements Closeable {
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * The size of the write buffer, frames are collected in this before they are sent on the
+     * channel.
+     */
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final Class streamClass;
+    private final DataOutputStream out;
+    private final Gson gson;
+
+    private boolean closed = false;
+
+    /**
+     * @param streamClass All events written on this stream must be of this class
+     * @param out         The stream the frames are written to
+     * @param gson        Used to convert the events to JSON
+     */
+    EventStreamWriter(Class streamClass, OutputStream out, Gson gson) {
+        this.streamClass = streamClass;
+        this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        this.gson = gson;
+    }
+
+    /**
+     * Writes the given event as one frame on the stream.
+     * This call blocks while the channel is full. There is no timeout, if the other device stops
+     * reading without closing the channel this call can block indefinitely.
+     *
+     * @param o The event to write, must be of the class the stream was opened for
+     */
+    public void write(Object o) throws IOException {
+        if (closed) {
+            throw new IOException("The event stream is closed");
+        }
+        if (!streamClass.isInstance(o)) {
+            throw new IllegalArgumentException("Stream for " + streamClass.getName()
+                    + " can't send an object of type " + (o == null ? "null" : o.getClass().getName()));
+        }
+        byte[] payload = gson.toJson(o).getBytes(UTF8);
+        if (payload.length > EventStreamReader.MAX_FRAME_SIZE) {
+            throw new IOException("Event is too large to be sent as a frame: " + payload.length + " bytes");
+        }
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    /**
+     * Sends all buffered frames to the other device.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Flushes the remaining frames and closes the stream.
+     * The other device will post all received events, reach the end of the stream and then close
+     * the channel. The channel isn't closed here, as that would make the reads on the other device
+     * fail before the last frames have been read.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        out.close();
+    }
+}
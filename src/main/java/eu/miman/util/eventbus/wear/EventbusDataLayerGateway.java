@@ -8,13 +8,19 @@ import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.common.api.PendingResult;
 import com.google.android.gms.common.api.ResultCallback;
+import com.google.android.gms.wearable.Channel;
+import com.google.android.gms.wearable.ChannelApi;
 import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.Node;
+import com.google.android.gms.wearable.NodeApi;
 import com.google.android.gms.wearable.PutDataMapRequest;
 import com.google.android.gms.wearable.PutDataRequest;
 import com.google.android.gms.wearable.Wearable;
 import com.google.gson.Gson;
 
+import java.io.IOException;
 import java.util.Date;
+import java.util.List;
 
 /**
  * This gateway should be inherited to send events to a wear device, it creates an invisible bridge
@@ -29,6 +35,10 @@ import java.util.Date;
  *
  * This class should always be used together with EventbusDataLayerProxyService on the other device.
  *
+ * Long sequences of events can instead be sent on an event stream (see openEventStream). Note that
+ * an event stream only reaches ONE connected device, while all other send/sync functions reach
+ * all connected devices.
+ *
  * Created by Mikael Thorman on 2015-12-28.
  */
 public class EventbusDataLayerGateway implements
@@ -36,6 +46,17 @@ public class EventbusDataLayerGateway implements
         GoogleApiClient.OnConnectionFailedListener {
     private static final String TAG = "EventbusDataGateway";
 
+    /**
+     * Event streams are opened on a channel path with this prefix followed by the same path that
+     * is used for the events when they are sent as data items.
+     */
+    static final String STREAM_PATH_PREFIX = "/stream";
+
+    /**
+     * Converts the sent events to JSON.
+     */
+    private final Gson gson = new Gson();
+
     private GoogleApiClient mGoogleApiClient = null;
 
     protected Context parentContext;
@@ -183,7 +204,6 @@ public class EventbusDataLayerGateway implements
         PutDataMapRequest putDataMapReq = PutDataMapRequest.create(path);
 
         // Add vehicle list
-        Gson gson = new Gson();
         String json = gson.toJson(o);
         Log.d(TAG, "Generated JSON: " + json);
         putDataMapReq.getDataMap().putString(classnameWithFileSeparators, json);
@@ -205,6 +225,72 @@ public class EventbusDataLayerGateway implements
         });
     }
 
+    /**
+     * Opens a stream used to send a long sequence of events of the given class (ex. history replay
+     * or bulk list sync) to one connected device on one ChannelApi channel, instead of creating
+     * one data item per event.
+     *
+     * The events are received by the EventbusDataLayerProxyService on the other device and posted
+     * on the local eventbus one by one as soon as they arrive. The class must be registered with
+     * handleMessageClass on the other device.
+     *
+     * NOTE: Unlike the send/sync functions, which reach all connected devices, the stream only
+     * reaches ONE device. A nearby device (directly connected, ex. the paired watch) is chosen
+     * before devices reached through the cloud.
+     *
+     * The writes are blocking (the writer waits if the other device doesn't keep up), so neither
+     * this function nor the returned writer may be used on the UI thread. The writer must always
+     * be closed when done.
+     *
+     * @param cl The class of the events that will be sent on the stream
+     * @return The writer to send the events with
+     * @throws IOException If there is no connected device or the channel couldn't be opened
+     */
+    protected EventStreamWriter openEventStream(Class cl) throws IOException {
+        if (mGoogleApiClient == null || !mGoogleApiClient.isConnected()) {
+            throw new IOException("GoogleApiClient is not connected");
+        }
+        String path = STREAM_PATH_PREFIX + "/" + cl.getName().replace(".", "/");
+
+        NodeApi.GetConnectedNodesResult nodesResult =
+                Wearable.NodeApi.getConnectedNodes(mGoogleApiClient).await();
+        List<Node> nodes = nodesResult.getNodes();
+        if (!nodesResult.getStatus().isSuccess() || nodes == null || nodes.isEmpty()) {
+            throw new IOException("There is no connected device to stream to");
+        }
+        Node node = selectStreamNode(nodes);
+
+        ChannelApi.OpenChannelResult openResult =
+                Wearable.ChannelApi.openChannel(mGoogleApiClient, node.getId(), path).await();
+        Channel channel = openResult.getChannel();
+        if (!openResult.getStatus().isSuccess() || channel == null) {
+            throw new IOException("Failed to open channel '" + path + "', msg: "
+                    + openResult.getStatus().getStatusMessage());
+        }
+
+        Channel.GetOutputStreamResult streamResult = channel.getOutputStream(mGoogleApiClient).await();
+        if (!streamResult.getStatus().isSuccess() || streamResult.getOutputStream() == null) {
+            channel.close(mGoogleApiClient);
+            throw new IOException("Failed to get output stream for channel '" + path + "', msg: "
+                    + streamResult.getStatus().getStatusMessage());
+        }
+        Log.i(TAG, "Event stream opened to " + node.getDisplayName() + " on: " + path);
+        return new EventStreamWriter(cl, streamResult.getOutputStream(), gson);
+    }
+
+    /**
+     * Selects the node an event stream is opened to, the first nearby node or the first node if
+     * none is nearby.
+     */
+    private Node selectStreamNode(List<Node> nodes) {
+        for (Node node : nodes) {
+            if (node.isNearby()) {
+                return node;
+            }
+        }
+        return nodes.get(0);
+    }
+
     // Create a data map and put data in it
     public void sendData(final PutDataMapRequest putDataMapReq, final WearCommunicationListener listener) {
         if (mGoogleApiClient != null) {
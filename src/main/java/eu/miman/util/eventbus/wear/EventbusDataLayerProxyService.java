@@ -1,5 +1,6 @@
 package eu.miman.util.eventbus.wear;
 
+import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
@@ -8,6 +9,7 @@ import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.common.api.PendingResult;
 import com.google.android.gms.common.api.ResultCallback;
+import com.google.android.gms.wearable.Channel;
 import com.google.android.gms.wearable.DataApi;
 import com.google.android.gms.wearable.DataEvent;
 import com.google.android.gms.wearable.DataEventBuffer;
@@ -23,9 +25,18 @@ import com.google.android.gms.wearable.Wearable;
 import com.google.android.gms.wearable.WearableListenerService;
 import com.google.gson.Gson;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import de.greenrobot.event.EventBus;
 
@@ -54,6 +65,28 @@ public class EventbusDataLayerProxyService extends WearableListenerService imple
 
     private GoogleApiClient mGoogleApiClient = null;
 
+    /**
+     * Parses the received events.
+     */
+    private final Gson gson = new Gson();
+
+    /**
+     * The maximum time a stream reader waits for the GoogleApiClient to connect.
+     */
+    private static final long STREAM_CONNECT_TIMEOUT_SECONDS = 30;
+
+    /**
+     * The event streams are read on the threads of this executor, it is shut down when the
+     * service is destroyed.
+     */
+    private ExecutorService streamExecutor;
+
+    /**
+     * The channels of the event streams that are being read, the service is kept started while
+     * this isn't empty. Any channels left are closed when the service is destroyed.
+     */
+    private final Set<Channel> activeStreamChannels = new HashSet<Channel>();
+
     /**
      * The first time we start the application we reload everything from local storage.
      */
@@ -84,6 +117,7 @@ public class EventbusDataLayerProxyService extends WearableListenerService imple
         Log.i(TAG, "Created");
 
         handledPathMap = new HashMap<String, ManagedMessageObject>();
+        streamExecutor = Executors.newCachedThreadPool();
 
         if(null == mGoogleApiClient) {
             mGoogleApiClient = new GoogleApiClient.Builder(this)
@@ -100,10 +134,19 @@ public class EventbusDataLayerProxyService extends WearableListenerService imple
         }
     }
 
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        // The service is only started to keep it alive while event streams are read, there is
+        // nothing to resume if it is killed
+        return START_NOT_STICKY;
+    }
+
     @Override
     public void onDestroy() {
         Log.v(TAG, "Destroyed");
 
+        stopEventStreamReaders();
+
         if(null != mGoogleApiClient){
             if(mGoogleApiClient.isConnected()){
                 mGoogleApiClient.disconnect();
@@ -160,6 +203,158 @@ public class EventbusDataLayerProxyService extends WearableListenerService imple
         }
     }
 
+    @Override
+    public void onChannelOpened(Channel channel) {
+        super.onChannelOpened(channel);
+        String channelPath = channel.getPath();
+        if (channelPath == null || !channelPath.startsWith(EventbusDataLayerGateway.STREAM_PATH_PREFIX + "/")) {
+            Log.w(TAG, "Channel NOT handled by this app opened from Mobile device, path: " + channelPath);
+            return;
+        }
+        String path = channelPath.substring(EventbusDataLayerGateway.STREAM_PATH_PREFIX.length());
+        ManagedMessageObject handler = handledPathMap.get(path);
+        if (handler == null) {
+            Log.w(TAG, "Event stream NOT handled by this app opened from Mobile device, path: " + channelPath);
+            closeStreamChannel(channel);
+            return;
+        }
+        Log.i(TAG, "Event stream handled by this app opened from Mobile device, path: " + channelPath);
+        // The stream is read on its own thread so other Data Layer events aren't blocked while it
+        // is open
+        startEventStreamReader(channel, handler);
+    }
+
+    /**
+     * Reads the stream on the stream executor.
+     *
+     * The system only keeps this service bound while a callback is delivered, so it could be
+     * destroyed (and the stream cut off) as soon as onChannelOpened returns. To prevent this the
+     * service is started while any stream is read, and stopped again when the last stream ends.
+     */
+    private void startEventStreamReader(final Channel channel, final ManagedMessageObject handler) {
+        synchronized (activeStreamChannels) {
+            activeStreamChannels.add(channel);
+            startService(new Intent(this, getClass()));
+        }
+        try {
+            streamExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        readEventStream(channel, handler);
+                    } catch (RuntimeException e) {
+                        // Must not escape the thread, that would kill the application
+                        Log.e(TAG, "Event stream reader failed, path: " + channel.getPath(), e);
+                    } finally {
+                        removeActiveStream(channel);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Service is destroyed, event stream not read, path: " + channel.getPath());
+            removeActiveStream(channel);
+            closeStreamChannel(channel);
+        }
+    }
+
+    /**
+     * Removes a stream that has ended, the service is stopped when no streams are left.
+     * This is done while holding the lock so a stream started at the same time isn't cut off.
+     */
+    private void removeActiveStream(Channel channel) {
+        synchronized (activeStreamChannels) {
+            if (activeStreamChannels.remove(channel) && activeStreamChannels.isEmpty()) {
+                stopSelf();
+            }
+        }
+    }
+
+    /**
+     * Stops reading all event streams, called before the GoogleApiClient is disconnected.
+     * As the service is kept started while streams are read this only happens if the system kills
+     * the service anyway (ex. low memory). The channels are closed so the blocked reads fail and
+     * the reader threads end, the senders get an error on their next write.
+     */
+    private void stopEventStreamReaders() {
+        if (streamExecutor != null) {
+            streamExecutor.shutdownNow();
+        }
+        List<Channel> channels;
+        synchronized (activeStreamChannels) {
+            channels = new ArrayList<Channel>(activeStreamChannels);
+            activeStreamChannels.clear();
+        }
+        for (Channel channel : channels) {
+            Log.w(TAG, "Service destroyed while event stream was read, path: " + channel.getPath());
+            closeStreamChannel(channel);
+        }
+    }
+
+    /**
+     * Reads the events in the stream one frame at a time and posts each on the local eventbus as
+     * soon as it has arrived.
+     * Events received on a stream are never stored locally, a stream is a sequence of events and
+     * not a single state that should be reloaded.
+     *
+     * The channel is always closed when this function returns, also if the stream couldn't be
+     * read, otherwise the sender would wait forever for the stream to be read.
+     */
+    private void readEventStream(Channel channel, ManagedMessageObject handler) {
+        String path = channel.getPath();
+        EventStreamReader reader = null;
+        int eventCount = 0;
+        try {
+            if (!mGoogleApiClient.isConnected()
+                    && !mGoogleApiClient.blockingConnect(STREAM_CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess()) {
+                Log.w(TAG, "Failed to connect GoogleApiClient, event stream not read, path: " + path);
+                return;
+            }
+            Channel.GetInputStreamResult streamResult = channel.getInputStream(mGoogleApiClient).await();
+            if (!streamResult.getStatus().isSuccess() || streamResult.getInputStream() == null) {
+                Log.w(TAG, "Failed to get input stream for channel '" + path + "', msg: "
+                        + streamResult.getStatus().getStatusMessage());
+                return;
+            }
+
+            reader = new EventStreamReader(handler.getClassInMessage(),
+                    streamResult.getInputStream(), gson);
+            Object message;
+            while ((message = reader.readEvent()) != null) {
+                if (handler.isPostAsSticky()) {
+                    EventBus.getDefault().postSticky(message);
+                } else {
+                    EventBus.getDefault().post(message);
+                }
+                eventCount++;
+            }
+            Log.i(TAG, "Event stream ended after " + eventCount + " events, path: " + path);
+        } catch (IOException e) {
+            Log.w(TAG, "Event stream failed after " + eventCount + " events, path: " + path, e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to close event stream, path: " + path, e);
+                }
+            }
+            closeStreamChannel(channel);
+        }
+    }
+
+    /**
+     * Closes the channel of an event stream, this makes the writes on the sender fail if it is
+     * still writing.
+     * If the GoogleApiClient isn't connected the close is queued until it is connected again.
+     */
+    private void closeStreamChannel(Channel channel) {
+        try {
+            channel.close(mGoogleApiClient);
+        } catch (IllegalStateException e) {
+            Log.w(TAG, "Failed to close event stream channel, path: " + channel.getPath(), e);
+        }
+    }
+
     /**
      * Retrieves a handler that can handle the given path.
      */
@@ -199,7 +394,6 @@ public class EventbusDataLayerProxyService extends WearableListenerService imple
      */
     private void handleReceivedMessage(DataItem item, ManagedMessageObject handler) {
         DataMap dataMap = DataMapItem.fromDataItem(item).getDataMap();
-        Gson gson = new Gson();
 
         String json = dataMap.getString(handler.getObjectKey());
         if (json != null) {
@@ -224,7 +418,6 @@ public class EventbusDataLayerProxyService extends WearableListenerService imple
      */
     private void handleReceivedLocallyCachedMessage(DataItem item, ManagedMessageObject handler) {
         DataMap dataMap = DataMapItem.fromDataItem(item).getDataMap();
-        Gson gson = new Gson();
 
         String json = dataMap.getString(handler.getObjectKey());
         Object message = gson.fromJson(json, handler.getClassInMessage());
@@ -0,0 +1,157 @@
+package eu.miman.util.eventbus.wear;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the framing used by EventStreamWriter & EventStreamReader.
+ */
+public class EventStreamTest {
+
+    static class TestEvent {
+        int id;
+        String name;
+
+        TestEvent(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private byte[] writeEvents(TestEvent... events) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EventStreamWriter writer = new EventStreamWriter(TestEvent.class, bytes, new Gson());
+        for (TestEvent event : events) {
+            writer.write(event);
+        }
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void eventsAreReadInWrittenOrder() throws Exception {
+        byte[] data = writeEvents(new TestEvent(1, "first"), new TestEvent(2, "\u00e5\u00e4\u00f6"),
+                new TestEvent(3, null));
+
+        EventStreamReader reader = new EventStreamReader(TestEvent.class,
+                new ByteArrayInputStream(data), new Gson());
+        TestEvent event = (TestEvent) reader.readEvent();
+        assertEquals(1, event.id);
+        assertEquals("first", event.name);
+        event = (TestEvent) reader.readEvent();
+        assertEquals(2, event.id);
+        assertEquals("\u00e5\u00e4\u00f6", event.name);
+        event = (TestEvent) reader.readEvent();
+        assertEquals(3, event.id);
+        assertNull(event.name);
+        assertNull(reader.readEvent());
+    }
+
+    @Test
+    public void emptyStreamHasNoEvents() throws Exception {
+        EventStreamReader reader = new EventStreamReader(TestEvent.class,
+                new ByteArrayInputStream(writeEvents()), new Gson());
+        assertNull(reader.readEvent());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFrameFails() throws Exception {
+        byte[] data = writeEvents(new TestEvent(1, "first"));
+        EventStreamReader reader = new EventStreamReader(TestEvent.class,
+                new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1)), new Gson());
+        reader.readEvent();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eventOfOtherClassIsRejected() throws Exception {
+        EventStreamWriter writer = new EventStreamWriter(TestEvent.class,
+                new ByteArrayOutputStream(), new Gson());
+        writer.write("not a TestEvent");
+    }
+
+    private EventStreamReader readerForFrame(int length, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(length);
+        out.write(payload);
+        out.close();
+        return new EventStreamReader(TestEvent.class,
+                new ByteArrayInputStream(bytes.toByteArray()), new Gson());
+    }
+
+    @Test
+    public void oversizedLengthHeaderFails() throws Exception {
+        EventStreamReader reader = readerForFrame(EventStreamReader.MAX_FRAME_SIZE + 1, new byte[0]);
+        try {
+            reader.readEvent();
+            fail("An oversized frame length must be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Invalid frame length"));
+        }
+    }
+
+    @Test
+    public void negativeLengthHeaderFails() throws Exception {
+        EventStreamReader reader = readerForFrame(-1, new byte[0]);
+        try {
+            reader.readEvent();
+            fail("A negative frame length must be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Invalid frame length"));
+        }
+    }
+
+    @Test
+    public void invalidJsonFrameFails() throws Exception {
+        byte[] payload = "[1, 2]".getBytes(EventStreamWriter.UTF8);
+        EventStreamReader reader = readerForFrame(payload.length, payload);
+        try {
+            reader.readEvent();
+            fail("A frame that isn't a valid event must be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof JsonParseException);
+        }
+    }
+
+    @Test
+    public void emptyFrameFails() throws Exception {
+        EventStreamReader reader = readerForFrame(0, new byte[0]);
+        try {
+            reader.readEvent();
+            fail("An empty frame must be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Invalid frame length"));
+        }
+    }
+
+    @Test
+    public void nullFrameFails() throws Exception {
+        byte[] payload = "null".getBytes(EventStreamWriter.UTF8);
+        EventStreamReader reader = readerForFrame(payload.length, payload);
+        try {
+            reader.readEvent();
+            fail("A frame without an event must be rejected");
+        } catch (IOException e) {
+            assertEquals("Frame in event stream doesn't contain an event", e.getMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void tooLargeEventIsRejected() throws Exception {
+        char[] name = new char[EventStreamReader.MAX_FRAME_SIZE];
+        Arrays.fill(name, 'x');
+        EventStreamWriter writer = new EventStreamWriter(TestEvent.class,
+                new ByteArrayOutputStream(), new Gson());
+        writer.write(new TestEvent(1, new String(name)));
+    }
+}